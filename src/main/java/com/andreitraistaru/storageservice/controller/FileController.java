@@ -2,13 +2,17 @@ package com.andreitraistaru.storageservice.controller;
 
 import com.andreitraistaru.storageservice.exception.AlreadyExistingStorageItemException;
 import com.andreitraistaru.storageservice.exception.MissingStorageItemException;
+import com.andreitraistaru.storageservice.exception.StorageItemEncodingException;
 import com.andreitraistaru.storageservice.service.CloudFileStorage;
 import com.andreitraistaru.storageservice.service.FileStorageInterface;
 import com.andreitraistaru.storageservice.service.LocalFileStorage;
+import com.andreitraistaru.storageservice.utils.FileCompression;
 import com.andreitraistaru.storageservice.utils.StorageType;
+import com.andreitraistaru.storageservice.utils.StoredContent;
 import lombok.AllArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -50,6 +54,8 @@ public class FileController {
             return new ResponseEntity<>(storageServices.get(storageType).createFile(filename, newFile), HttpStatus.CREATED);
         } catch (AlreadyExistingStorageItemException ignored) {
             return new ResponseEntity<>("File already existing", HttpStatus.CONFLICT);
+        } catch (StorageItemEncodingException ignored) {
+            return new ResponseEntity<>("Something went wrong. Try again later.", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
@@ -89,13 +95,16 @@ public class FileController {
             return new ResponseEntity<>(storageServices.get(storageType).updateFile(filename, updatedFile), HttpStatus.OK);
         } catch (MissingStorageItemException ignored) {
             return new ResponseEntity<>("File not existing.", HttpStatus.NOT_FOUND);
+        } catch (StorageItemEncodingException ignored) {
+            return new ResponseEntity<>("Something went wrong. Try again later.", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @GetMapping("/read")
     public ResponseEntity<?> readFile(@RequestParam("filename") String filename,
                                       @RequestParam(value = "version", required = false) String version,
-                                      @RequestParam("storageType") StorageType storageType) {
+                                      @RequestParam("storageType") StorageType storageType,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         System.out.println("filename" + filename);
         System.out.println("version" + version);
         System.out.println("storageType" + storageType);
@@ -109,10 +118,19 @@ public class FileController {
 
             resource = storageServices.get(storageType).downloadFile(filename, version);
 
-            return ResponseEntity.ok()
+            StoredContent storedContent = FileCompression.decode(resource.getInputStream());
+            ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok()
                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .body(resource);
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+            if (FileCompression.isAcceptedByClient(storedContent.getCodec(), acceptEncoding)) {
+                return responseBuilder
+                        .header(HttpHeaders.CONTENT_ENCODING, storedContent.getCodec().getContentEncoding())
+                        .body(new InputStreamResource(storedContent.getPayload()));
+            }
+
+            return responseBuilder.body(new InputStreamResource(FileCompression.decompress(storedContent)));
         } catch (MissingStorageItemException ignored) {
             return new ResponseEntity<>("File not existing.", HttpStatus.NOT_FOUND);
         } catch (Throwable ignored) {
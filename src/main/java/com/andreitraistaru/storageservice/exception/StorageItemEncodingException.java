@@ -0,0 +1,4 @@
+package com.andreitraistaru.storageservice.exception;
+
+public class StorageItemEncodingException extends StorageServiceException {
+}
@@ -4,6 +4,9 @@ import com.andreitraistaru.storageservice.dto.FilesMatchingRegexpDTO;
 import com.andreitraistaru.storageservice.dto.NumberOfFilesDTO;
 import com.andreitraistaru.storageservice.exception.AlreadyExistingStorageItemException;
 import com.andreitraistaru.storageservice.exception.MissingStorageItemException;
+import com.andreitraistaru.storageservice.exception.StorageItemEncodingException;
+import com.andreitraistaru.storageservice.utils.FileCompression;
+import com.andreitraistaru.storageservice.utils.RestTemplates;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
@@ -11,6 +14,7 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -18,22 +22,29 @@ import org.springframework.web.util.UriComponentsBuilder;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.List;
 
 @Service
 public class CloudFileStorage implements FileStorageInterface {
     @Value("${cloud.file.storage.url}")
     private String cloudFileStorageUrl;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate = RestTemplates.createStreaming();
 
-    public String createFile(String fileName, MultipartFile multipartFile) throws AlreadyExistingStorageItemException {
+    public String createFile(String fileName, MultipartFile multipartFile) throws AlreadyExistingStorageItemException, StorageItemEncodingException {
         String url = cloudFileStorageUrl + "/file/create";
 
         LinkedMultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
         HttpHeaders httpHeaders = new HttpHeaders();
 
         parts.add("filename", fileName);
-        parts.add("file", multipartFile.getResource());
+
+        try {
+            parts.add("file", FileCompression.encode(multipartFile));
+        } catch (IOException ignored) {
+            throw new StorageItemEncodingException();
+        }
+
         httpHeaders.setContentType(MediaType.MULTIPART_FORM_DATA);
         HttpEntity<LinkedMultiValueMap<String, Object>> httpEntity = new HttpEntity<>(parts, httpHeaders);
 
@@ -45,19 +56,31 @@ public class CloudFileStorage implements FileStorageInterface {
             } else {
                 throw new AlreadyExistingStorageItemException();
             }
+        } catch (ResourceAccessException exception) {
+            if (FileCompression.isEncodingFailure(exception)) {
+                throw new StorageItemEncodingException();
+            }
+
+            throw new AlreadyExistingStorageItemException();
         } catch (Throwable ignored) {
             throw new AlreadyExistingStorageItemException();
         }
     }
 
-    public String updateFile(String fileName, MultipartFile multipartFile) throws MissingStorageItemException {
+    public String updateFile(String fileName, MultipartFile multipartFile) throws MissingStorageItemException, StorageItemEncodingException {
         String url = cloudFileStorageUrl + "/file/update";
 
         LinkedMultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
         HttpHeaders httpHeaders = new HttpHeaders();
 
         parts.add("filename", fileName);
-        parts.add("file", multipartFile.getResource());
+
+        try {
+            parts.add("file", FileCompression.encode(multipartFile));
+        } catch (IOException ignored) {
+            throw new StorageItemEncodingException();
+        }
+
         httpHeaders.setContentType(MediaType.MULTIPART_FORM_DATA);
         HttpEntity<LinkedMultiValueMap<String, Object>> httpEntity = new HttpEntity<>(parts, httpHeaders);
 
@@ -69,6 +92,12 @@ public class CloudFileStorage implements FileStorageInterface {
             } else {
                 throw new MissingStorageItemException();
             }
+        } catch (ResourceAccessException exception) {
+            if (FileCompression.isEncodingFailure(exception)) {
+                throw new StorageItemEncodingException();
+            }
+
+            throw new MissingStorageItemException();
         } catch (Throwable ignored) {
             throw new MissingStorageItemException();
         }
@@ -2,15 +2,16 @@ package com.andreitraistaru.storageservice.service;
 
 import com.andreitraistaru.storageservice.exception.AlreadyExistingStorageItemException;
 import com.andreitraistaru.storageservice.exception.MissingStorageItemException;
+import com.andreitraistaru.storageservice.exception.StorageItemEncodingException;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
 public interface FileStorageInterface {
-    String createFile(String fileName, MultipartFile multipartFile) throws AlreadyExistingStorageItemException;
+    String createFile(String fileName, MultipartFile multipartFile) throws AlreadyExistingStorageItemException, StorageItemEncodingException;
 
-    String updateFile(String fileName, MultipartFile multipartFile) throws MissingStorageItemException;
+    String updateFile(String fileName, MultipartFile multipartFile) throws MissingStorageItemException, StorageItemEncodingException;
 
     Resource downloadFile(String fileName, String versionId) throws MissingStorageItemException;
 
@@ -0,0 +1,32 @@
+package com.andreitraistaru.storageservice.utils;
+
+public enum CompressionCodec {
+    NONE((byte) 0, null),
+    DEFLATE((byte) 1, "deflate");
+
+    private final byte id;
+    private final String contentEncoding;
+
+    CompressionCodec(byte id, String contentEncoding) {
+        this.id = id;
+        this.contentEncoding = contentEncoding;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public static CompressionCodec fromId(byte id) {
+        for (CompressionCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+}
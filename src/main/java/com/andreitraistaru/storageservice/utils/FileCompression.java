@@ -0,0 +1,251 @@
+package com.andreitraistaru.storageservice.utils;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encodes uploaded files before they are sent to a storage backend and decodes them on the way back.
+ * Every stored file starts with a marker (magic bytes followed by the codec id) so that the read path
+ * knows whether the payload is compressed. Files stored before the marker was introduced have no
+ * marker and are served as they are.
+ */
+public final class FileCompression {
+    private static final byte[] MAGIC = {(byte) 0x89, 'S', 'S', 'C'};
+    private static final int MARKER_LENGTH = MAGIC.length + 1;
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    private static final int MIN_COMPRESSIBLE_SIZE = 256;
+    private static final double MAX_COMPRESSION_RATIO = 0.9;
+    private static final int COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
+    private FileCompression() {
+    }
+
+    public static Resource encode(MultipartFile multipartFile) throws IOException {
+        InputStream input = multipartFile.getInputStream();
+        byte[] sample;
+
+        try {
+            sample = input.readNBytes(SAMPLE_SIZE);
+        } catch (IOException exception) {
+            input.close();
+            throw exception;
+        }
+
+        CompressionCodec codec = isCompressible(sample) ? CompressionCodec.DEFLATE : CompressionCodec.NONE;
+
+        InputStream content = new SequenceInputStream(new ByteArrayInputStream(sample), input);
+
+        if (codec == CompressionCodec.DEFLATE) {
+            content = deflate(content);
+        }
+
+        return new EncodedFileResource(new SequenceInputStream(new ByteArrayInputStream(marker(codec)), content),
+                multipartFile.getOriginalFilename());
+    }
+
+    public static boolean isEncodingFailure(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof EncodingFailureException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public static StoredContent decode(InputStream storedInput) throws IOException {
+        PushbackInputStream input = new PushbackInputStream(storedInput, MARKER_LENGTH);
+        byte[] marker = input.readNBytes(MARKER_LENGTH);
+
+        if (marker.length == MARKER_LENGTH && Arrays.equals(marker, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            CompressionCodec codec = CompressionCodec.fromId(marker[MAGIC.length]);
+
+            if (codec != null) {
+                return new StoredContent(codec, input);
+            }
+        }
+
+        input.unread(marker);
+
+        return new StoredContent(CompressionCodec.NONE, input);
+    }
+
+    public static InputStream decompress(StoredContent storedContent) {
+        if (storedContent.getCodec() == CompressionCodec.DEFLATE) {
+            return inflate(storedContent.getPayload());
+        }
+
+        return storedContent.getPayload();
+    }
+
+    // An explicit entry for the coding takes precedence over "*" (RFC 9110, section 12.5.3).
+    public static boolean isAcceptedByClient(CompressionCodec codec, String acceptEncoding) {
+        if (codec.getContentEncoding() == null || acceptEncoding == null) {
+            return false;
+        }
+
+        Double explicitQuality = null;
+        Double wildcardQuality = null;
+
+        for (String entry : acceptEncoding.split(",")) {
+            String[] tokens = entry.split(";");
+            String coding = tokens[0].trim();
+
+            if (coding.equalsIgnoreCase(codec.getContentEncoding())) {
+                explicitQuality = parseQuality(tokens);
+            } else if (coding.equals("*")) {
+                wildcardQuality = parseQuality(tokens);
+            }
+        }
+
+        if (explicitQuality != null) {
+            return explicitQuality > 0;
+        }
+
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+
+    private static double parseQuality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String[] parameter = tokens[i].split("=", 2);
+
+            if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter[1].trim());
+                } catch (NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    private static boolean isCompressible(byte[] sample) {
+        if (sample.length < MIN_COMPRESSIBLE_SIZE) {
+            return false;
+        }
+
+        Deflater deflater = new Deflater(COMPRESSION_LEVEL);
+        byte[] buffer = new byte[sample.length];
+
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+
+            long compressedSize = 0;
+
+            while (!deflater.finished() && compressedSize < sample.length) {
+                compressedSize += deflater.deflate(buffer);
+            }
+
+            return compressedSize < sample.length * MAX_COMPRESSION_RATIO;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static InputStream deflate(InputStream content) {
+        Deflater deflater = new Deflater(COMPRESSION_LEVEL);
+
+        // A caller-supplied Deflater/Inflater is not ended when its stream is closed, so release it here.
+        return new DeflaterInputStream(content, deflater, STREAM_BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    private static InputStream inflate(InputStream payload) {
+        Inflater inflater = new Inflater();
+
+        return new InflaterInputStream(payload, inflater, STREAM_BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    private static byte[] marker(CompressionCodec codec) {
+        byte[] marker = Arrays.copyOf(MAGIC, MARKER_LENGTH);
+
+        marker[MAGIC.length] = codec.getId();
+
+        return marker;
+    }
+
+    private static class EncodedFileResource extends InputStreamResource {
+        private final String filename;
+
+        EncodedFileResource(InputStream inputStream, String filename) {
+            super(new EncodingInputStream(inputStream));
+            this.filename = filename;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        // The encoded length is only known once the stream has been consumed, so it must not be read up front.
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+    }
+
+    // Read failures are tagged so callers can tell them apart from failures of the backend connection.
+    private static class EncodingInputStream extends FilterInputStream {
+        EncodingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException exception) {
+                throw new EncodingFailureException(exception);
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                return super.read(buffer, offset, length);
+            } catch (IOException exception) {
+                throw new EncodingFailureException(exception);
+            }
+        }
+    }
+
+    private static class EncodingFailureException extends IOException {
+        EncodingFailureException(IOException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.andreitraistaru.storageservice.utils;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+public final class RestTemplates {
+    private RestTemplates() {
+    }
+
+    // Uploads are encoded while being sent, so the request body must not be buffered whole in memory.
+    public static RestTemplate createStreaming() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+
+        requestFactory.setBufferRequestBody(false);
+
+        return new RestTemplate(requestFactory);
+    }
+}
@@ -0,0 +1,13 @@
+package com.andreitraistaru.storageservice.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.InputStream;
+
+@Getter
+@AllArgsConstructor
+public class StoredContent {
+    private final CompressionCodec codec;
+    private final InputStream payload;
+}
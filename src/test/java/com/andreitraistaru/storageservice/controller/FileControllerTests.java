@@ -0,0 +1,111 @@
+package com.andreitraistaru.storageservice.controller;
+
+import com.andreitraistaru.storageservice.exception.StorageItemEncodingException;
+import com.andreitraistaru.storageservice.service.CloudFileStorage;
+import com.andreitraistaru.storageservice.service.LocalFileStorage;
+import com.andreitraistaru.storageservice.utils.FileCompression;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(FileController.class)
+class FileControllerTests {
+    private static final byte[] CONTENT = "{\"key\":\"value\"}\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private CloudFileStorage cloudFileStorage;
+    @MockBean
+    private LocalFileStorage localFileStorage;
+
+    private void storeDeflatedFile() throws Exception {
+        MockMultipartFile multipartFile = new MockMultipartFile("file", "file.json", null, CONTENT);
+        byte[] stored;
+
+        try (InputStream encoded = FileCompression.encode(multipartFile).getInputStream()) {
+            stored = encoded.readAllBytes();
+        }
+
+        when(localFileStorage.downloadFile(eq("file.json"), any()))
+                .thenReturn(new InputStreamResource(new ByteArrayInputStream(stored)));
+    }
+
+    private static byte[] inflate(byte[] body) throws IOException {
+        try (InputStream inflated = new InflaterInputStream(new ByteArrayInputStream(body))) {
+            return inflated.readAllBytes();
+        }
+    }
+
+    @Test
+    void deflatedFileIsPassedThroughToCapableClient() throws Exception {
+        storeDeflatedFile();
+
+        byte[] body = mockMvc.perform(get("/file/read")
+                        .param("filename", "file.json")
+                        .param("storageType", "LOCAL")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "deflate"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(CONTENT, inflate(body));
+    }
+
+    @Test
+    void deflatedFileIsInflatedForOtherClients() throws Exception {
+        storeDeflatedFile();
+
+        mockMvc.perform(get("/file/read")
+                        .param("filename", "file.json")
+                        .param("storageType", "LOCAL"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void encodingFailureOnCreateIsReportedAsServerError() throws Exception {
+        when(cloudFileStorage.createFile(eq("file.json"), any())).thenThrow(new StorageItemEncodingException());
+
+        mockMvc.perform(multipart("/file/create")
+                        .file(new MockMultipartFile("file", "file.json", null, CONTENT))
+                        .param("filename", "file.json")
+                        .param("storageType", "CLOUD"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void encodingFailureOnUpdateIsReportedAsServerError() throws Exception {
+        when(cloudFileStorage.updateFile(eq("file.json"), any())).thenThrow(new StorageItemEncodingException());
+
+        mockMvc.perform(multipart("/file/update")
+                        .file(new MockMultipartFile("file", "file.json", null, CONTENT))
+                        .param("filename", "file.json")
+                        .param("storageType", "CLOUD"))
+                .andExpect(status().isInternalServerError());
+    }
+}
@@ -0,0 +1,201 @@
+package com.andreitraistaru.storageservice.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileCompressionTests {
+    private static final byte[] MAGIC = {(byte) 0x89, 'S', 'S', 'C'};
+
+    private static byte[] encode(byte[] content) throws IOException {
+        MockMultipartFile multipartFile = new MockMultipartFile("file", "file.txt", null, content);
+
+        try (InputStream encoded = FileCompression.encode(multipartFile).getInputStream()) {
+            return encoded.readAllBytes();
+        }
+    }
+
+    private static byte[] decodeAndDecompress(byte[] stored) throws IOException {
+        StoredContent storedContent = FileCompression.decode(new ByteArrayInputStream(stored));
+
+        try (InputStream decompressed = FileCompression.decompress(storedContent)) {
+            return decompressed.readAllBytes();
+        }
+    }
+
+    private static MockMultipartFile failingMultipartFile(FailingInputStream inputStream) {
+        return new MockMultipartFile("file", "file.txt", null, new byte[0]) {
+            @Override
+            public InputStream getInputStream() {
+                return inputStream;
+            }
+        };
+    }
+
+    private static void assertMarker(byte[] stored, CompressionCodec codec) {
+        assertArrayEquals(MAGIC, Arrays.copyOf(stored, MAGIC.length));
+        assertEquals(codec.getId(), stored[MAGIC.length]);
+    }
+
+    @Test
+    void compressibleTextIsDeflatedAndRestored() throws IOException {
+        byte[] content = "{\"key\":\"value\",\"list\":[1,2,3]}\n".repeat(5000).getBytes(StandardCharsets.UTF_8);
+
+        byte[] stored = encode(content);
+
+        assertMarker(stored, CompressionCodec.DEFLATE);
+        assertTrue(stored.length < content.length / 5);
+        assertEquals(CompressionCodec.DEFLATE, FileCompression.decode(new ByteArrayInputStream(stored)).getCodec());
+        assertArrayEquals(content, decodeAndDecompress(stored));
+    }
+
+    @Test
+    void randomContentIsStoredUncompressed() throws IOException {
+        byte[] content = new byte[200 * 1024];
+        new Random(42).nextBytes(content);
+
+        byte[] stored = encode(content);
+
+        assertMarker(stored, CompressionCodec.NONE);
+        assertEquals(content.length + MAGIC.length + 1, stored.length);
+        assertArrayEquals(content, decodeAndDecompress(stored));
+    }
+
+    @Test
+    void smallContentIsStoredUncompressed() throws IOException {
+        byte[] content = "a".repeat(255).getBytes(StandardCharsets.UTF_8);
+
+        byte[] stored = encode(content);
+
+        assertMarker(stored, CompressionCodec.NONE);
+        assertArrayEquals(content, decodeAndDecompress(stored));
+    }
+
+    @Test
+    void emptyContentIsStoredUncompressed() throws IOException {
+        byte[] stored = encode(new byte[0]);
+
+        assertMarker(stored, CompressionCodec.NONE);
+        assertEquals(MAGIC.length + 1, stored.length);
+        assertArrayEquals(new byte[0], decodeAndDecompress(stored));
+    }
+
+    @Test
+    void legacyContentWithoutMarkerIsPassedThrough() throws IOException {
+        byte[] content = "plain file stored before compression".getBytes(StandardCharsets.UTF_8);
+
+        StoredContent storedContent = FileCompression.decode(new ByteArrayInputStream(content));
+
+        assertEquals(CompressionCodec.NONE, storedContent.getCodec());
+        assertArrayEquals(content, storedContent.getPayload().readAllBytes());
+    }
+
+    @Test
+    void legacyContentShorterThanMarkerIsPassedThrough() throws IOException {
+        byte[][] contents = {new byte[0], {'a'}, {(byte) 0x89, 'S', 'S', 'C'}};
+
+        for (byte[] content : contents) {
+            StoredContent storedContent = FileCompression.decode(new ByteArrayInputStream(content));
+
+            assertEquals(CompressionCodec.NONE, storedContent.getCodec());
+            assertArrayEquals(content, storedContent.getPayload().readAllBytes());
+        }
+    }
+
+    @Test
+    void unknownCodecAfterMagicIsPassedThrough() throws IOException {
+        byte[] content = {(byte) 0x89, 'S', 'S', 'C', 42, 'x', 'y', 'z'};
+
+        StoredContent storedContent = FileCompression.decode(new ByteArrayInputStream(content));
+
+        assertEquals(CompressionCodec.NONE, storedContent.getCodec());
+        assertArrayEquals(content, FileCompression.decompress(storedContent).readAllBytes());
+    }
+
+    @Test
+    void deflateIsAcceptedWhenAdvertised() {
+        assertTrue(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "deflate"));
+        assertTrue(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "gzip, deflate, br"));
+        assertTrue(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "DEFLATE;q=0.5"));
+        assertTrue(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "*"));
+    }
+
+    @Test
+    void deflateIsRejectedWhenMissingOrDisabled() {
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, null));
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, ""));
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "gzip, br"));
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "deflate;q=0"));
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "deflate;Q=0"));
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "deflate; q = 0"));
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "deflate;q=invalid"));
+    }
+
+    @Test
+    void explicitCodingTakesPrecedenceOverWildcard() {
+        assertTrue(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "*;q=0, deflate"));
+        assertTrue(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "deflate, *;q=0"));
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "*, deflate;q=0"));
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.DEFLATE, "gzip, *;q=0"));
+    }
+
+    @Test
+    void uncompressedContentIsNeverAdvertisedAsEncoded() {
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.NONE, "*"));
+        assertFalse(FileCompression.isAcceptedByClient(CompressionCodec.NONE, "deflate"));
+    }
+
+    @Test
+    void uploadStreamIsClosedWhenSamplingFails() {
+        FailingInputStream inputStream = new FailingInputStream(10);
+
+        assertThrows(IOException.class, () -> FileCompression.encode(failingMultipartFile(inputStream)));
+        assertTrue(inputStream.closed);
+    }
+
+    @Test
+    void readFailureAfterSampleIsReportedAsEncodingFailure() throws IOException {
+        FailingInputStream inputStream = new FailingInputStream(200 * 1024);
+        InputStream encoded = FileCompression.encode(failingMultipartFile(inputStream)).getInputStream();
+
+        IOException exception = assertThrows(IOException.class, encoded::readAllBytes);
+
+        assertTrue(FileCompression.isEncodingFailure(exception));
+        assertTrue(FileCompression.isEncodingFailure(new ResourceAccessException("I/O error", exception)));
+        assertFalse(FileCompression.isEncodingFailure(new ResourceAccessException("I/O error", new IOException())));
+    }
+
+    private static class FailingInputStream extends InputStream {
+        private int remaining;
+        private boolean closed;
+
+        FailingInputStream(int remaining) {
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0) {
+                throw new IOException("Upload interrupted");
+            }
+
+            remaining--;
+
+            return 'a';
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}